@@ -0,0 +1,45 @@
+package com.teamapi.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * 记录耗时样本 (纳秒) 并计算百分位数
+ */
+final class LatencyRecorder {
+    private long[] samples = new long[1024];
+    private int size = 0;
+    private long total = 0;
+
+    void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+        total += nanos;
+    }
+
+    int count() {
+        return size;
+    }
+
+    long total() {
+        return total;
+    }
+
+    double mean() {
+        return size == 0 ? 0 : (double) total / size;
+    }
+
+    /**
+     * 计算百分位数 (最近秩法)
+     *
+     * @param percentile 0-100
+     */
+    long percentile(double percentile) {
+        if (size == 0) return 0;
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * size);
+        return sorted[Math.max(0, Math.min(size, rank) - 1)];
+    }
+}
@@ -0,0 +1,112 @@
+package com.teamapi.loadtest;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 负载测试参数，从 teamapi.loadtest.* 系统属性读取
+ *
+ * @param players     模拟玩家总数
+ * @param admins      拥有改队权限的模拟玩家数 (始终在线)
+ * @param warmupTicks 施加负载前等待的tick数
+ * @param ticks       施加负载的tick数
+ * @param opsPerTick  每tick发起的操作数
+ * @param mix         各类操作的权重
+ * @param compressedShare 声明支持压缩快照的模拟玩家比例 (0-1)
+ * @param seed        随机种子，相同参数与种子可复现同一组流量
+ * @param report      报告输出文件
+ */
+public record LoadTestConfig(int players, int admins, int warmupTicks, int ticks, int opsPerTick,
+                             Map<Operation, Integer> mix, double compressedShare, long seed, String report) {
+    private static final String PREFIX = "teamapi.loadtest.";
+
+    public LoadTestConfig {
+        if (players < 1 || admins < 1 || admins > players) {
+            throw new IllegalArgumentException("需要 1 <= admins <= players");
+        }
+        if (warmupTicks < 1 || ticks < 1 || opsPerTick < 0) {
+            throw new IllegalArgumentException("tick数必须为正数，操作数不能为负数");
+        }
+        if (compressedShare < 0 || compressedShare > 1) {
+            throw new IllegalArgumentException("压缩比例必须在0到1之间: " + compressedShare);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("操作权重之和必须大于0");
+        }
+    }
+
+    /**
+     * 读取系统属性，未设置的参数使用默认值
+     */
+    @NotNull
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger(PREFIX + "players", 200),
+                Integer.getInteger(PREFIX + "admins", 5),
+                Integer.getInteger(PREFIX + "warmupTicks", 100),
+                Integer.getInteger(PREFIX + "ticks", 1200),
+                Integer.getInteger(PREFIX + "opsPerTick", 20),
+                parseMix(System.getProperty(PREFIX + "mix", "set=40,change=20,request=30,join=10")),
+                Double.parseDouble(System.getProperty(PREFIX + "compressedShare", "0.5")),
+                Long.getLong(PREFIX + "seed", 42L),
+                System.getProperty(PREFIX + "report", "loadtest-report.txt")
+        );
+    }
+
+    /**
+     * 解析形如 "set=40,change=20,request=30,join=10" 的操作权重
+     */
+    @NotNull
+    static Map<Operation, Integer> parseMix(@NotNull String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("无效的操作权重: " + part);
+            }
+            Operation operation = Operation.byKey(pair[0].trim().toLowerCase(Locale.ROOT));
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("操作权重不能为负数: " + part);
+            }
+            mix.put(operation, weight);
+        }
+        return mix;
+    }
+
+    /**
+     * 模拟的操作类型
+     */
+    public enum Operation {
+        /** 直接调用 {@link com.teamapi.TeamAPI#setPlayerTeam} */
+        SET_TEAM("set"),
+        /** 管理员发送 TEAM_CHANGE 数据包 */
+        TEAM_CHANGE("change"),
+        /** 玩家发送 REQUEST_TEAMS 数据包 */
+        REQUEST_TEAMS("request"),
+        /** 玩家加入或离开服务器 */
+        JOIN_LEAVE("join");
+
+        private final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        static Operation byKey(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equals(key)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("未知操作类型: " + key);
+        }
+    }
+}
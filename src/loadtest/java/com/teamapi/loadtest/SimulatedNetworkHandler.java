@@ -0,0 +1,98 @@
+package com.teamapi.loadtest;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.ClientConnection;
+import net.minecraft.network.NetworkSide;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.PacketCallbacks;
+import net.minecraft.network.packet.Packet;
+import net.minecraft.network.packet.s2c.play.CustomPayloadS2CPacket;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayNetworkHandler;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * 替代真实连接的网络处理器：不发送任何数据，只统计本应发出的数据包与字节数
+ */
+final class SimulatedNetworkHandler extends ServerPlayNetworkHandler {
+    private static final Logger LOGGER = Logger.getLogger(SimulatedNetworkHandler.class.getName());
+
+    private final Traffic traffic;
+
+    SimulatedNetworkHandler(@NotNull MinecraftServer server, @NotNull ServerPlayerEntity player, @NotNull Traffic traffic) {
+        super(server, new ClientConnection(NetworkSide.CLIENTBOUND), player);
+        this.traffic = traffic;
+    }
+
+    @Override
+    public void sendPacket(Packet<?> packet, @Nullable PacketCallbacks callbacks) {
+        PacketByteBuf buf = new PacketByteBuf(Unpooled.buffer());
+        try {
+            packet.write(buf);
+            Identifier channel = packet instanceof CustomPayloadS2CPacket payload ? payload.getChannel() : null;
+            traffic.record(channel, buf.readableBytes());
+        } finally {
+            buf.release();
+        }
+    }
+
+    /**
+     * 底层连接没有网络通道，原版的断开流程会在其上抛出异常并中断关服；
+     * 模拟玩家的进出由 {@link TeamLoadTest} 自行管理，这里只记录日志
+     */
+    @Override
+    public void disconnect(Text reason) {
+        LOGGER.fine("Ignoring disconnect of simulated player " + player.getName().getString() + ": " + reason.getString());
+    }
+
+    /**
+     * 所有模拟玩家共享的出站流量统计
+     */
+    static final class Traffic {
+        private final Map<Identifier, long[]> byChannel = new HashMap<>();
+        private long packets = 0;
+        private long bytes = 0;
+
+        void record(@Nullable Identifier channel, int size) {
+            packets++;
+            bytes += size;
+            if (channel != null) {
+                long[] counters = byChannel.computeIfAbsent(channel, id -> new long[2]);
+                counters[0]++;
+                counters[1] += size;
+            }
+        }
+
+        void reset() {
+            byChannel.clear();
+            packets = 0;
+            bytes = 0;
+        }
+
+        long packets() {
+            return packets;
+        }
+
+        long bytes() {
+            return bytes;
+        }
+
+        long packets(@NotNull Identifier channel) {
+            long[] counters = byChannel.get(channel);
+            return counters != null ? counters[0] : 0;
+        }
+
+        long bytes(@NotNull Identifier channel) {
+            long[] counters = byChannel.get(channel);
+            return counters != null ? counters[1] : 0;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.teamapi.loadtest;
+
+import com.mojang.authlib.GameProfile;
+import com.teamapi.TeamAPI;
+import com.teamapi.loadtest.LoadTestConfig.Operation;
+import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.entity.FakePlayer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.packet.c2s.play.CustomPayloadC2SPacket;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * 无头负载测试：在开发服务器中创建模拟玩家，按配置的比例对 {@link TeamAPI} 施加流量并输出报告
+ * <p>
+ * 模拟玩家是挂接了 {@link SimulatedNetworkHandler} 的假玩家，直接插入玩家列表，
+ * 数据包走与真实客户端相同的接收路径，发往客户端的数据只计数不发送。
+ * 通过 {@code ./gradlew runLoadTest} 运行，参数见 {@link LoadTestConfig}。
+ */
+public class TeamLoadTest implements ModInitializer {
+    private static final Logger LOGGER = Logger.getLogger(TeamLoadTest.class.getName());
+    private static final double NANOS_PER_MS = 1_000_000.0;
+    private static final double TICK_BUDGET_MS = 50.0;
+    private static final Identifier REGISTER_CHANNEL = new Identifier("minecraft", "register");
+
+    private LoadTestConfig config;
+    private Random random;
+    private List<String> teamIds;
+    private final List<ServerPlayerEntity> simulated = new ArrayList<>();
+    private final List<ServerPlayerEntity> online = new ArrayList<>();
+    private final SimulatedNetworkHandler.Traffic traffic = new SimulatedNetworkHandler.Traffic();
+    private final Map<Operation, LatencyRecorder> latencies = new EnumMap<>(Operation.class);
+    private final LatencyRecorder tickCost = new LatencyRecorder();
+    // 服务器自身统计的tick耗时 (不含 END_SERVER_TICK 监听器)
+    private final LatencyRecorder warmupServerTicks = new LatencyRecorder();
+    private final LatencyRecorder loadServerTicks = new LatencyRecorder();
+    // 从 START_SERVER_TICK 到本监听器结束的完整tick耗时 (含调度器等监听器与模拟负载)
+    private final LatencyRecorder warmupFullTicks = new LatencyRecorder();
+    private final LatencyRecorder loadFullTicks = new LatencyRecorder();
+    private long tickStartNanos = 0;
+    private Operation[] weightedOperations;
+    private boolean running = false;
+    private long tick = 0;
+
+    @Override
+    public void onInitialize() {
+        config = LoadTestConfig.fromSystemProperties();
+        random = new Random(config.seed());
+        weightedOperations = expandMix(config.mix());
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyRecorder());
+        }
+
+        ServerLifecycleEvents.SERVER_STARTED.register(this::setUp);
+        ServerTickEvents.START_SERVER_TICK.register(server -> tickStartNanos = System.nanoTime());
+        ServerTickEvents.END_SERVER_TICK.register(this::onTick);
+    }
+
+    private void setUp(@NotNull MinecraftServer server) {
+        TeamAPI api = TeamAPI.getInstance();
+        api.initTeams(server.getScoreboard());
+        teamIds = new ArrayList<>(TeamAPI.getConfig().teams.keySet());
+
+        ServerWorld world = server.getOverworld();
+        for (int i = 0; i < config.players(); i++) {
+            GameProfile profile = new GameProfile(
+                    UUID.nameUUIDFromBytes(("teamapi-loadtest:" + i).getBytes(StandardCharsets.UTF_8)),
+                    "LoadTest" + i
+            );
+            ServerPlayerEntity player = FakePlayer.get(world, profile);
+            new SimulatedNetworkHandler(server, player, traffic);
+            if (i < config.admins()) {
+                server.getPlayerManager().addToOperators(profile);
+            }
+            simulated.add(player);
+            join(server, player);
+
+            // 均匀地让一部分玩家像支持压缩的客户端一样注册通道
+            if (Math.floor((i + 1) * config.compressedShare()) > Math.floor(i * config.compressedShare())) {
+                PacketByteBuf buf = PacketByteBufs.create();
+                buf.writeBytes((TeamAPI.SYNC_TEAMS_COMPRESSED + "\0" + TeamAPI.SYNC_DICTIONARY)
+                        .getBytes(StandardCharsets.US_ASCII));
+                receive(player, REGISTER_CHANNEL, buf);
+            }
+        }
+
+        LOGGER.info("Load test started with " + config.players() + " simulated players");
+        running = true;
+    }
+
+    private void onTick(@NotNull MinecraftServer server) {
+        if (!running) return;
+        tick++;
+
+        if (tick > config.warmupTicks() + config.ticks()) {
+            running = false;
+            writeReport();
+            // 模拟玩家没有真实连接，必须在关服断开所有玩家之前自行移出玩家列表
+            for (ServerPlayerEntity player : new ArrayList<>(online)) {
+                leave(server, player);
+            }
+            server.stop(false);
+            return;
+        }
+
+        boolean warmup = tick <= config.warmupTicks();
+        if (!warmup) {
+            long workStart = System.nanoTime();
+            for (int i = 0; i < config.opsPerTick(); i++) {
+                Operation operation = weightedOperations[random.nextInt(weightedOperations.length)];
+                long start = System.nanoTime();
+                runOperation(server, operation);
+                latencies.get(operation).record(System.nanoTime() - start);
+            }
+            tickCost.record(System.nanoTime() - workStart);
+        }
+
+        // 原版在 END_SERVER_TICK 之前记录本tick耗时
+        long serverTick = server.lastTickLengths[server.getTicks() % server.lastTickLengths.length];
+        (warmup ? warmupServerTicks : loadServerTicks).record(serverTick);
+        if (tickStartNanos > 0) {
+            (warmup ? warmupFullTicks : loadFullTicks).record(System.nanoTime() - tickStartNanos);
+        }
+
+        if (tick == config.warmupTicks()) {
+            // 只统计负载阶段的流量
+            traffic.reset();
+        }
+    }
+
+    // ========== 模拟操作 ==========
+
+    private void runOperation(@NotNull MinecraftServer server, @NotNull Operation operation) {
+        switch (operation) {
+            case SET_TEAM -> TeamAPI.getInstance().setPlayerTeam(randomOnlinePlayer(), randomTeam());
+            case TEAM_CHANGE -> {
+                PacketByteBuf buf = PacketByteBufs.create();
+                buf.writeString(randomOnlinePlayer().getName().getString());
+                buf.writeString(randomTeam());
+                receive(randomAdmin(), TeamAPI.TEAM_CHANGE, buf);
+            }
+            case REQUEST_TEAMS -> receive(randomOnlinePlayer(), TeamAPI.REQUEST_TEAMS, PacketByteBufs.empty());
+            case JOIN_LEAVE -> {
+                // 管理员始终在线，只让普通玩家进出
+                int regular = config.players() - config.admins();
+                if (regular == 0) return;
+                ServerPlayerEntity player = simulated.get(config.admins() + random.nextInt(regular));
+                if (online.contains(player)) {
+                    leave(server, player);
+                } else {
+                    join(server, player);
+                    TeamAPI.getInstance().setPlayerTeam(player, randomTeam());
+                }
+            }
+        }
+    }
+
+    private void join(@NotNull MinecraftServer server, @NotNull ServerPlayerEntity player) {
+        server.getPlayerManager().getPlayerList().add(player);
+        online.add(player);
+    }
+
+    private void leave(@NotNull MinecraftServer server, @NotNull ServerPlayerEntity player) {
+        server.getPlayerManager().getPlayerList().remove(player);
+        online.remove(player);
+        TeamAPI.getInstance().onPlayerDisconnect(player);
+    }
+
+    /**
+     * 经由网络处理器投递客户端数据包，与真实连接的接收路径一致
+     */
+    private void receive(@NotNull ServerPlayerEntity player, @NotNull Identifier channel, @NotNull PacketByteBuf buf) {
+        player.networkHandler.onCustomPayload(new CustomPayloadC2SPacket(channel, buf));
+    }
+
+    private ServerPlayerEntity randomOnlinePlayer() {
+        return online.get(random.nextInt(online.size()));
+    }
+
+    private ServerPlayerEntity randomAdmin() {
+        return simulated.get(random.nextInt(config.admins()));
+    }
+
+    private String randomTeam() {
+        return teamIds.get(random.nextInt(teamIds.size()));
+    }
+
+    private static Operation[] expandMix(@NotNull Map<Operation, Integer> mix) {
+        List<Operation> expanded = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                expanded.add(operation);
+            }
+        });
+        return expanded.toArray(new Operation[0]);
+    }
+
+    // ========== 报告 ==========
+
+    private static void appendTickTimes(StringBuilder report, String label, LatencyRecorder warmup, LatencyRecorder load) {
+        report.append(String.format(Locale.ROOT,
+                "%s: warmup mean=%.3f p99=%.3f | load mean=%.3f p99=%.3f max=%.3f | delta mean=%+.3f (%.1f%% of tick budget)%n",
+                label,
+                warmup.mean() / NANOS_PER_MS,
+                warmup.percentile(99) / NANOS_PER_MS,
+                load.mean() / NANOS_PER_MS,
+                load.percentile(99) / NANOS_PER_MS,
+                load.percentile(100) / NANOS_PER_MS,
+                (load.mean() - warmup.mean()) / NANOS_PER_MS,
+                load.mean() / NANOS_PER_MS / TICK_BUDGET_MS * 100));
+    }
+
+    private void writeReport() {
+        StringBuilder report = new StringBuilder();
+        report.append("Team API load test\n");
+        report.append(String.format(Locale.ROOT, "config: players=%d admins=%d warmupTicks=%d ticks=%d opsPerTick=%d mix=%s compressedShare=%.2f seed=%d%n",
+                config.players(), config.admins(), config.warmupTicks(), config.ticks(), config.opsPerTick(),
+                config.mix(), config.compressedShare(), config.seed()));
+
+        long operations = latencies.values().stream().mapToLong(LatencyRecorder::count).sum();
+        double busySeconds = tickCost.total() / (NANOS_PER_MS * 1000.0);
+        report.append(String.format(Locale.ROOT, "throughput: %d ops in %.3f s of server-thread time (%.0f ops/s)%n",
+                operations, busySeconds, busySeconds > 0 ? operations / busySeconds : 0));
+
+        appendTickTimes(report, "server tick (ms, vanilla tally)", warmupServerTicks, loadServerTicks);
+        appendTickTimes(report, "full tick (ms, incl. end-of-tick listeners)", warmupFullTicks, loadFullTicks);
+        report.append(String.format(Locale.ROOT,
+                "harness work per tick (ms): mean=%.3f p50=%.3f p95=%.3f p99=%.3f max=%.3f (%.1f%% of tick budget at mean)%n",
+                tickCost.mean() / NANOS_PER_MS,
+                tickCost.percentile(50) / NANOS_PER_MS,
+                tickCost.percentile(95) / NANOS_PER_MS,
+                tickCost.percentile(99) / NANOS_PER_MS,
+                tickCost.percentile(100) / NANOS_PER_MS,
+                tickCost.mean() / NANOS_PER_MS / TICK_BUDGET_MS * 100));
+
+        report.append(String.format(Locale.ROOT, "outbound: %d packets, %d bytes (%.0f bytes/tick)%n",
+                traffic.packets(), traffic.bytes(), (double) traffic.bytes() / config.ticks()));
+        report.append(String.format(Locale.ROOT, "  %s: %d packets, %d bytes%n",
+                TeamAPI.SYNC_TEAMS, traffic.packets(TeamAPI.SYNC_TEAMS), traffic.bytes(TeamAPI.SYNC_TEAMS)));
+        report.append(String.format(Locale.ROOT, "  %s: %d packets, %d bytes%n",
+                TeamAPI.SYNC_TEAMS_COMPRESSED, traffic.packets(TeamAPI.SYNC_TEAMS_COMPRESSED),
+                traffic.bytes(TeamAPI.SYNC_TEAMS_COMPRESSED)));
+        report.append(String.format(Locale.ROOT, "  %s: %d packets, %d bytes%n",
+                TeamAPI.SYNC_DICTIONARY, traffic.packets(TeamAPI.SYNC_DICTIONARY),
+                traffic.bytes(TeamAPI.SYNC_DICTIONARY)));
+        report.append("compression: ").append(TeamAPI.getInstance().getCompressionStats().summary()).append('\n');
+
+        report.append("latency (us):\n");
+        for (Map.Entry<Operation, LatencyRecorder> entry : latencies.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            if (recorder.count() == 0) continue;
+            report.append(String.format(Locale.ROOT, "  %-8s n=%d p50=%.1f p95=%.1f p99=%.1f max=%.1f%n",
+                    entry.getKey().getKey(), recorder.count(),
+                    recorder.percentile(50) / 1000.0,
+                    recorder.percentile(95) / 1000.0,
+                    recorder.percentile(99) / 1000.0,
+                    recorder.percentile(100) / 1000.0));
+        }
+
+        LOGGER.info(report.toString());
+        try {
+            Files.writeString(Path.of(config.report()), report);
+        } catch (IOException e) {
+            LOGGER.severe("Failed to write load test report: " + e.getMessage());
+        }
+    }
+}
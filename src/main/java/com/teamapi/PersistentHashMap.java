@@ -0,0 +1,295 @@
+package com.teamapi;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * 不可变的哈希数组映射树 (HAMT)
+ * <p>
+ * 每次修改返回新的映射，只复制从根到被修改节点的路径 (最多7层，每层最多32项)，
+ * 其余节点与旧映射共享，因此旧映射可以被任意线程无锁地继续读取。
+ */
+final class PersistentHashMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+
+    @Nullable
+    private final Node root;
+    private final int size;
+
+    private PersistentHashMap(@Nullable Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    V get(@NotNull Object key) {
+        if (root == null) return null;
+        Leaf leaf = root.find(0, hash(key), key);
+        return leaf != null ? (V) leaf.value : null;
+    }
+
+    /**
+     * 返回包含该映射的新对象，值未变化时返回自身
+     */
+    @NotNull
+    PersistentHashMap<K, V> put(@NotNull K key, @NotNull V value) {
+        Leaf leaf = new Leaf(hash(key), key, value);
+        if (root == null) {
+            return new PersistentHashMap<>(new BitmapNode(0, new Object[0]).put(0, leaf), 1);
+        }
+        Node newRoot = root.put(0, leaf);
+        if (newRoot == root) return this;
+        return new PersistentHashMap<>(newRoot, root.find(0, leaf.hash, key) == null ? size + 1 : size);
+    }
+
+    /**
+     * 返回移除该键后的新对象，键不存在时返回自身
+     */
+    @NotNull
+    PersistentHashMap<K, V> remove(@NotNull Object key) {
+        if (root == null) return this;
+        Node newRoot = root.remove(0, hash(key), key);
+        if (newRoot == root) return this;
+        return newRoot == null ? empty() : new PersistentHashMap<>(newRoot, size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(@NotNull BiConsumer<? super K, ? super V> action) {
+        if (root != null) {
+            root.forEach(leaf -> action.accept((K) leaf.key, (V) leaf.value));
+        }
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    // ========== 节点实现 ==========
+
+    private record Leaf(int hash, Object key, Object value) {
+        boolean matches(int hash, Object key) {
+            return this.hash == hash && this.key.equals(key);
+        }
+    }
+
+    private interface LeafVisitor {
+        void visit(Leaf leaf);
+    }
+
+    private abstract static class Node {
+        @Nullable
+        abstract Leaf find(int shift, int hash, Object key);
+
+        /**
+         * @return 新节点，未变化时返回自身
+         */
+        @NotNull
+        abstract Node put(int shift, Leaf leaf);
+
+        /**
+         * @return 新节点，未变化时返回自身，节点变空时返回null
+         */
+        @Nullable
+        abstract Node remove(int shift, int hash, Object key);
+
+        abstract void forEach(LeafVisitor visitor);
+    }
+
+    /**
+     * 按位图压缩存储的分支节点，槽位中是 {@link Leaf} 或子节点
+     */
+    private static final class BitmapNode extends Node {
+        private final int bitmap;
+        private final Object[] entries;
+
+        BitmapNode(int bitmap, Object[] entries) {
+            this.bitmap = bitmap;
+            this.entries = entries;
+        }
+
+        @Override
+        @Nullable
+        Leaf find(int shift, int hash, Object key) {
+            int bit = bit(shift, hash);
+            if ((bitmap & bit) == 0) return null;
+            Object entry = entries[index(bit)];
+            if (entry instanceof Leaf leaf) {
+                return leaf.matches(hash, key) ? leaf : null;
+            }
+            return ((Node) entry).find(shift + BITS, hash, key);
+        }
+
+        @Override
+        @NotNull
+        Node put(int shift, Leaf leaf) {
+            int bit = bit(shift, leaf.hash);
+            int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] newEntries = new Object[entries.length + 1];
+                System.arraycopy(entries, 0, newEntries, 0, index);
+                newEntries[index] = leaf;
+                System.arraycopy(entries, index, newEntries, index + 1, entries.length - index);
+                return new BitmapNode(bitmap | bit, newEntries);
+            }
+
+            Object entry = entries[index];
+            Object newEntry;
+            if (entry instanceof Leaf existing) {
+                if (existing.matches(leaf.hash, leaf.key)) {
+                    if (Objects.equals(existing.value, leaf.value)) return this;
+                    newEntry = leaf;
+                } else {
+                    newEntry = merge(shift + BITS, existing, leaf);
+                }
+            } else {
+                Node child = (Node) entry;
+                newEntry = child.put(shift + BITS, leaf);
+                if (newEntry == child) return this;
+            }
+            return new BitmapNode(bitmap, replace(index, newEntry));
+        }
+
+        @Override
+        @Nullable
+        Node remove(int shift, int hash, Object key) {
+            int bit = bit(shift, hash);
+            if ((bitmap & bit) == 0) return this;
+            int index = index(bit);
+            Object entry = entries[index];
+
+            Object newEntry;
+            if (entry instanceof Leaf leaf) {
+                if (!leaf.matches(hash, key)) return this;
+                newEntry = null;
+            } else {
+                Node child = (Node) entry;
+                newEntry = child.remove(shift + BITS, hash, key);
+                if (newEntry == child) return this;
+            }
+
+            if (newEntry != null) {
+                return new BitmapNode(bitmap, replace(index, newEntry));
+            }
+            if (entries.length == 1) return null;
+            Object[] newEntries = new Object[entries.length - 1];
+            System.arraycopy(entries, 0, newEntries, 0, index);
+            System.arraycopy(entries, index + 1, newEntries, index, entries.length - index - 1);
+            return new BitmapNode(bitmap & ~bit, newEntries);
+        }
+
+        @Override
+        void forEach(LeafVisitor visitor) {
+            for (Object entry : entries) {
+                if (entry instanceof Leaf leaf) {
+                    visitor.visit(leaf);
+                } else {
+                    ((Node) entry).forEach(visitor);
+                }
+            }
+        }
+
+        private Object[] replace(int index, Object entry) {
+            Object[] newEntries = entries.clone();
+            newEntries[index] = entry;
+            return newEntries;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private static int bit(int shift, int hash) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+
+        private static Node merge(int shift, Leaf a, Leaf b) {
+            if (shift >= Integer.SIZE) {
+                // 哈希值完全相同
+                return new CollisionNode(new Leaf[]{a, b});
+            }
+            int bitA = bit(shift, a.hash);
+            int bitB = bit(shift, b.hash);
+            if (bitA == bitB) {
+                return new BitmapNode(bitA, new Object[]{merge(shift + BITS, a, b)});
+            }
+            return new BitmapNode(bitA | bitB, Integer.compareUnsigned(bitA, bitB) < 0
+                    ? new Object[]{a, b}
+                    : new Object[]{b, a});
+        }
+    }
+
+    /**
+     * 哈希值完全相同的键，线性查找
+     */
+    private static final class CollisionNode extends Node {
+        private final Leaf[] leaves;
+
+        CollisionNode(Leaf[] leaves) {
+            this.leaves = leaves;
+        }
+
+        @Override
+        @Nullable
+        Leaf find(int shift, int hash, Object key) {
+            for (Leaf leaf : leaves) {
+                if (leaf.matches(hash, key)) return leaf;
+            }
+            return null;
+        }
+
+        @Override
+        @NotNull
+        Node put(int shift, Leaf leaf) {
+            for (int i = 0; i < leaves.length; i++) {
+                if (leaves[i].matches(leaf.hash, leaf.key)) {
+                    if (Objects.equals(leaves[i].value, leaf.value)) return this;
+                    Leaf[] newLeaves = leaves.clone();
+                    newLeaves[i] = leaf;
+                    return new CollisionNode(newLeaves);
+                }
+            }
+            Leaf[] newLeaves = Arrays.copyOf(leaves, leaves.length + 1);
+            newLeaves[leaves.length] = leaf;
+            return new CollisionNode(newLeaves);
+        }
+
+        @Override
+        @Nullable
+        Node remove(int shift, int hash, Object key) {
+            for (int i = 0; i < leaves.length; i++) {
+                if (leaves[i].matches(hash, key)) {
+                    if (leaves.length == 1) return null;
+                    Leaf[] newLeaves = new Leaf[leaves.length - 1];
+                    System.arraycopy(leaves, 0, newLeaves, 0, i);
+                    System.arraycopy(leaves, i + 1, newLeaves, i, leaves.length - i - 1);
+                    return new CollisionNode(newLeaves);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        void forEach(LeafVisitor visitor) {
+            for (Leaf leaf : leaves) {
+                visitor.visit(leaf);
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.teamapi;
+
+import io.netty.buffer.Unpooled;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.minecraft.network.PacketByteBuf;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 队伍快照的压缩编解码，并统计压缩率与耗时
+ * <p>
+ * 压缩格式: 原始长度 + 使用预设字典的zlib数据。
+ * 字典由队伍ID列表生成，服务端每个连接只发送一次 (队伍配置变化时重发)，
+ * 解压时通过zlib头部的DICTID确认双方使用的是同一字典。
+ */
+public final class SnapshotCompression {
+    /** 允许解压的最大快照大小，与自定义数据包上限一致 */
+    public static final int MAX_UNCOMPRESSED_SIZE = 1048576;
+
+    private final LongAdder packets = new LongAdder();
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    /**
+     * 压缩一个未压缩的快照数据包，不会修改原数据包的读取位置
+     *
+     * @param plain      {@link TeamAPI#SYNC_TEAMS} 格式的数据
+     * @param dictionary {@link #buildDictionary} 生成的预设字典
+     */
+    @NotNull
+    public PacketByteBuf compress(@NotNull PacketByteBuf plain, byte[] dictionary) {
+        long start = System.nanoTime();
+        byte[] raw = new byte[plain.readableBytes()];
+        plain.getBytes(plain.readerIndex(), raw);
+
+        PacketByteBuf out = PacketByteBufs.create();
+        out.writeVarInt(raw.length);
+        Deflater deflater = new Deflater();
+        try {
+            if (dictionary.length > 0) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] chunk = new byte[4096];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(chunk);
+                out.writeBytes(chunk, 0, count);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        record(raw.length, out.readableBytes(), System.nanoTime() - start);
+        return out;
+    }
+
+    /**
+     * 放弃一次压缩结果 (压缩后没有变小，改为发送未压缩版本) 并释放其数据
+     * <p>
+     * 该次压缩不再计入数据包与字节统计，只计入未采用次数，耗时仍然保留。
+     *
+     * @param rawSize    压缩前的字节数
+     * @param compressed {@link #compress} 返回的数据
+     */
+    public void discard(int rawSize, @NotNull PacketByteBuf compressed) {
+        packets.decrement();
+        rawBytes.add(-rawSize);
+        compressedBytes.add(-compressed.readableBytes());
+        discarded.increment();
+        compressed.release();
+    }
+
+    /**
+     * 解压快照数据包
+     *
+     * @param dictionary 服务端发送的队伍ID生成的预设字典
+     * @return {@link TeamAPI#SYNC_TEAMS} 格式的数据
+     * @throws IllegalStateException 如果数据损坏、超过大小上限或字典不匹配
+     */
+    @NotNull
+    public PacketByteBuf decompress(@NotNull PacketByteBuf buf, byte[] dictionary) {
+        long start = System.nanoTime();
+        int received = buf.readableBytes();
+        int length = buf.readVarInt();
+        if (length < 0 || length > MAX_UNCOMPRESSED_SIZE) {
+            throw new IllegalStateException("快照大小超出限制: " + length);
+        }
+
+        byte[] input = new byte[buf.readableBytes()];
+        buf.readBytes(input);
+        byte[] output = new byte[length];
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            int offset = 0;
+            while (!inflater.finished()) {
+                int count = inflater.inflate(output, offset, length - offset);
+                if (count == 0) {
+                    if (inflater.needsDictionary()) {
+                        if (inflater.getAdler() != dictionaryId(dictionary)) {
+                            throw new IllegalStateException("预设字典不匹配");
+                        }
+                        inflater.setDictionary(dictionary);
+                    } else if (inflater.needsInput() || offset == length) {
+                        throw new IllegalStateException("快照数据不完整或长度不符");
+                    }
+                }
+                offset += count;
+            }
+            if (offset != length) {
+                throw new IllegalStateException("快照数据不完整或长度不符");
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("快照数据损坏: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+
+        record(length, received, System.nanoTime() - start);
+        return new PacketByteBuf(Unpooled.wrappedBuffer(output));
+    }
+
+    /**
+     * 获取压缩统计
+     */
+    @NotNull
+    public Stats getStats() {
+        return new Stats(packets.sum(), rawBytes.sum(), compressedBytes.sum(), nanos.sum(), discarded.sum());
+    }
+
+    /**
+     * 重置压缩统计
+     */
+    public void resetStats() {
+        packets.reset();
+        rawBytes.reset();
+        compressedBytes.reset();
+        nanos.reset();
+        discarded.reset();
+    }
+
+    private void record(int raw, int compressed, long elapsed) {
+        packets.increment();
+        rawBytes.add(raw);
+        compressedBytes.add(compressed);
+        nanos.add(elapsed);
+    }
+
+    /**
+     * 以快照中相同的编码写出队伍ID作为预设字典，使重复出现的队伍ID可以直接引用字典
+     */
+    public static byte[] buildDictionary(@NotNull Collection<String> teamIds) {
+        PacketByteBuf buf = PacketByteBufs.create();
+        try {
+            teamIds.forEach(buf::writeString);
+            byte[] dictionary = new byte[buf.readableBytes()];
+            buf.readBytes(dictionary);
+            return dictionary;
+        } finally {
+            buf.release();
+        }
+    }
+
+    /**
+     * 获取字典的zlib DICTID (Adler-32校验值)
+     */
+    public static int dictionaryId(byte[] dictionary) {
+        Adler32 adler = new Adler32();
+        adler.update(dictionary);
+        return (int) adler.getValue();
+    }
+
+    /**
+     * 压缩统计快照
+     *
+     * @param packets         实际发送或接收的压缩数据包数量
+     * @param rawBytes        这些数据包未压缩的总字节数
+     * @param compressedBytes 这些数据包压缩后的总字节数 (含长度头部)
+     * @param nanos           压缩/解压耗费的总时间 (纳秒)，包括未采用的压缩
+     * @param discarded       因压缩后没有变小而未采用的压缩次数
+     */
+    public record Stats(long packets, long rawBytes, long compressedBytes, long nanos, long discarded) {
+        /**
+         * 压缩后与压缩前的大小之比，没有数据时为1
+         */
+        public double ratio() {
+            return rawBytes == 0 ? 1.0 : (double) compressedBytes / rawBytes;
+        }
+
+        /**
+         * 每次压缩/解压的平均耗时 (微秒)，包括未采用的压缩
+         */
+        public double averageMicros() {
+            long attempts = packets + discarded;
+            return attempts == 0 ? 0 : nanos / 1000.0 / attempts;
+        }
+
+        /**
+         * 供命令与日志输出的摘要
+         */
+        @NotNull
+        public String summary() {
+            return String.format(Locale.ROOT, "数据包 %d, 原始 %d 字节, 压缩后 %d 字节, 压缩率 %.3f, 未采用 %d 次, 平均耗时 %.1f 微秒",
+                    packets, rawBytes, compressedBytes, ratio(), discarded, averageMicros());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.teamapi;
+
+import net.minecraft.server.MinecraftServer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Consumer;
+
+/**
+ * 合并批量操作期间的同步请求，最外层批次结束时只同步一次
+ * <p>
+ * 只应在服务器线程上使用。
+ */
+final class SyncBatcher {
+    private final Consumer<MinecraftServer> sync;
+    private int depth = 0;
+    private boolean pending = false;
+
+    SyncBatcher(@NotNull Consumer<MinecraftServer> sync) {
+        this.sync = sync;
+    }
+
+    /**
+     * 执行一个批次，批次可以嵌套
+     */
+    void runBatch(@NotNull MinecraftServer server, @NotNull Runnable action) {
+        depth++;
+        try {
+            action.run();
+        } finally {
+            if (--depth == 0 && pending) {
+                pending = false;
+                sync.accept(server);
+            }
+        }
+    }
+
+    /**
+     * 请求同步，批次中只做标记，否则立即同步
+     */
+    void requestSync(@NotNull MinecraftServer server) {
+        if (depth > 0) {
+            pending = true;
+        } else {
+            sync.accept(server);
+        }
+    }
+}
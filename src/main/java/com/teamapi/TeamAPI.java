@@ -1,27 +1,35 @@
 package com.teamapi;
 
+import com.mojang.authlib.GameProfile;
 import com.teamapi.config.TeamConfig;
 import me.shedaniel.autoconfig.AutoConfig;
 import me.shedaniel.autoconfig.serializer.GsonConfigSerializer;
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.packet.Packet;
 import net.minecraft.scoreboard.AbstractTeam;
 import net.minecraft.scoreboard.Scoreboard;
 import net.minecraft.scoreboard.Team;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.UserCache;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 
 public class TeamAPI implements ModInitializer {
@@ -31,6 +39,8 @@ public class TeamAPI implements ModInitializer {
 
     // 网络通信标识符
     public static final Identifier SYNC_TEAMS = new Identifier("teamapi", "sync_teams");
+    public static final Identifier SYNC_TEAMS_COMPRESSED = new Identifier("teamapi", "sync_teams_compressed");
+    public static final Identifier SYNC_DICTIONARY = new Identifier("teamapi", "sync_dictionary");
     public static final Identifier REQUEST_TEAMS = new Identifier("teamapi", "request_teams");
     public static final Identifier TEAM_CHANGE = new Identifier("teamapi", "team_change");
 
@@ -38,8 +48,14 @@ public class TeamAPI implements ModInitializer {
     public static final String RED_TEAM = "red";
     public static final String BLUE_TEAM = "blue";
 
-    private final Map<UUID, PlayerTeamData> playerDataMap = new ConcurrentHashMap<>();
+    // 当前已提交的队伍状态，每次变更都以CAS发布新快照
+    private final AtomicReference<TeamSnapshot> snapshot = new AtomicReference<>(TeamSnapshot.EMPTY);
     final Set<TeamChangeListener> teamChangeListeners = new HashSet<>();
+    private final SyncBatcher syncBatcher = new SyncBatcher(this::syncTeamDataToAllClients);
+    private final TeamScheduler scheduler = new TeamScheduler(this, syncBatcher);
+    private final SnapshotCompression compression = new SnapshotCompression();
+    // 每个玩家连接上已发送的压缩字典ID，只在服务器线程上访问
+    private final Map<UUID, Integer> sentDictionaries = new HashMap<>();
 
     @Override
     public void onInitialize() {
@@ -47,12 +63,21 @@ public class TeamAPI implements ModInitializer {
         config = AutoConfig.getConfigHolder(TeamConfig.class).getConfig();
         instance = this;
         registerNetworkHandlers();
+        registerCommands();
+
+        ServerTickEvents.END_SERVER_TICK.register(scheduler::tick);
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> scheduler.clear());
     }
 
     private void registerNetworkHandlers() {
-        // 处理队伍数据请求
+        // 新连接需要重新发送压缩字典
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) ->
+                sentDictionaries.remove(handler.player.getUuid())
+        );
+
+        // 处理队伍数据请求，与广播同步一样在服务器线程上决定压缩与字典发送，保证字典先于压缩快照到达
         ServerPlayNetworking.registerGlobalReceiver(REQUEST_TEAMS, (server, player, handler, buf, responseSender) ->
-                syncTeamDataToClient(player)
+                server.execute(() -> syncTeamDataToClient(player))
         );
 
         // 处理队伍变更请求
@@ -64,6 +89,26 @@ public class TeamAPI implements ModInitializer {
         });
     }
 
+    private void registerCommands() {
+        // /teamapi compression 查看快照压缩统计，用于调整压缩阈值
+        CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) ->
+                dispatcher.register(CommandManager.literal("teamapi")
+                        .requires(source -> source.hasPermissionLevel(2))
+                        .then(CommandManager.literal("compression")
+                                .executes(context -> {
+                                    String summary = compression.getStats().summary();
+                                    context.getSource().sendFeedback(() -> Text.literal("快照压缩: " + summary), false);
+                                    return 1;
+                                })
+                                .then(CommandManager.literal("reset")
+                                        .executes(context -> {
+                                            compression.resetStats();
+                                            context.getSource().sendFeedback(() -> Text.literal("已重置快照压缩统计"), true);
+                                            return 1;
+                                        }))))
+        );
+    }
+
     private void handleTeamChangeRequest(ServerPlayerEntity requester, String targetName, String teamId) {
         if (!requester.hasPermissionLevel(2)) {
             requester.sendMessage(Text.literal("你没有权限更改队伍").formatted(Formatting.RED), false);
@@ -105,6 +150,29 @@ public class TeamAPI implements ModInitializer {
         return config;
     }
 
+    /**
+     * 获取队伍操作调度器
+     */
+    @NotNull
+    public TeamScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * 获取服务端快照压缩统计，可用于调整 {@link TeamConfig#compressionThreshold}
+     */
+    @NotNull
+    public SnapshotCompression.Stats getCompressionStats() {
+        return compression.getStats();
+    }
+
+    /**
+     * 批量执行队伍操作，期间的所有变更只在结束时同步一次
+     */
+    public void runBatch(@NotNull MinecraftServer server, @NotNull Runnable action) {
+        syncBatcher.runBatch(server, action);
+    }
+
     /**
      * 注册队伍变更监听器
      */
@@ -155,17 +223,86 @@ public class TeamAPI implements ModInitializer {
 
         // 使用不可变对象
         PlayerTeamData newData = new PlayerTeamData(player.getUuid(), teamId);
-        playerDataMap.put(player.getUuid(), newData);
-
         applyTeamSettings(serverPlayer, newData);
 
+        // 记分板更新完成后再发布快照
+        snapshot.updateAndGet(current -> current.withPlayerData(newData));
+
         // 通知监听器
         for (TeamChangeListener listener : teamChangeListeners) {
             listener.onTeamChanged(player, teamId);
         }
 
         // 同步给所有客户端
-        syncTeamDataToAllClients(server);
+        requestSync(server);
+    }
+
+    /**
+     * 将玩家移出当前队伍
+     */
+    public void clearPlayerTeam(@NotNull PlayerEntity player) {
+        if (!(player instanceof ServerPlayerEntity serverPlayer)) {
+            return;
+        }
+
+        MinecraftServer server = serverPlayer.getServer();
+        if (server == null) {
+            return;
+        }
+
+        UUID playerId = player.getUuid();
+        PlayerTeamData oldData = snapshot.get().getPlayerData(playerId);
+        if (oldData == null || oldData.teamId() == null) {
+            return;
+        }
+
+        serverPlayer.getScoreboard().clearPlayerTeam(player.getName().getString());
+
+        // 记分板更新完成后再发布快照
+        snapshot.updateAndGet(current -> current.withoutPlayer(playerId));
+
+        // 通知监听器
+        for (TeamChangeListener listener : teamChangeListeners) {
+            listener.onTeamCleared(player, oldData.teamId());
+        }
+
+        requestSync(server);
+    }
+
+    /**
+     * 让玩家的临时队伍身份过期，只有玩家仍在该队伍中时才会被移出
+     * <p>
+     * 在线玩家按 {@link #clearPlayerTeam} 处理。离线玩家的记分板队伍按名称保存、下线后依然有效，
+     * 因此按缓存中的名称直接移出记分板队伍并从快照中删除，监听器收到
+     * {@link TeamChangeListener#onOfflineTeamCleared}。
+     */
+    public void expirePlayerTeam(@NotNull MinecraftServer server, @NotNull UUID playerId, @NotNull String teamId) {
+        ServerPlayerEntity player = server.getPlayerManager().getPlayer(playerId);
+        if (player != null) {
+            if (teamId.equals(getPlayerTeam(player))) {
+                clearPlayerTeam(player);
+            }
+            return;
+        }
+
+        UserCache userCache = server.getUserCache();
+        Optional<GameProfile> profile = userCache != null ? userCache.getByUuid(playerId) : Optional.empty();
+        if (profile.isEmpty()) {
+            LOGGER.warning("Cannot expire team of unknown offline player " + playerId);
+            return;
+        }
+        clearOfflinePlayerTeam(server.getScoreboard(), playerId, profile.get().getName(), teamId);
+    }
+
+    /**
+     * 获取当前队伍状态的快照
+     * <p>
+     * 可在任意线程调用，返回的快照不会再改变；比较 {@link TeamSnapshot#getVersion()} 即可判断状态是否更新。
+     * 快照在记分板更新之后、通知监听器和同步客户端之前发布，因此看到新版本时记分板已经是新状态。
+     */
+    @NotNull
+    public TeamSnapshot getSnapshot() {
+        return snapshot.get();
     }
 
     /**
@@ -174,8 +311,7 @@ public class TeamAPI implements ModInitializer {
      */
     @Nullable
     public String getPlayerTeam(@NotNull PlayerEntity player) {
-        PlayerTeamData data = playerDataMap.get(player.getUuid());
-        return data != null ? data.teamId() : null;
+        return snapshot.get().getPlayerTeam(player.getUuid());
     }
 
     /**
@@ -190,14 +326,38 @@ public class TeamAPI implements ModInitializer {
     }
 
     /**
-     * 玩家退出时清理数据
+     * 玩家退出时清理数据，应在服务器线程上调用
      */
     public void onPlayerDisconnect(@NotNull PlayerEntity player) {
-        playerDataMap.remove(player.getUuid());
+        UUID playerId = player.getUuid();
+        snapshot.updateAndGet(current -> current.withoutPlayer(playerId));
+        sentDictionaries.remove(playerId);
     }
 
     // ========== 内部方法 ==========
 
+    /**
+     * 按名称将离线玩家移出记分板队伍并从快照中删除
+     *
+     * @return 玩家此前是否在该队伍中
+     */
+    boolean clearOfflinePlayerTeam(@NotNull Scoreboard scoreboard, @NotNull UUID playerId,
+                                   @NotNull String playerName, @NotNull String teamId) {
+        Team team = scoreboard.getPlayerTeam(playerName);
+        if (team == null || !teamId.equals(team.getName())) {
+            return false;
+        }
+
+        scoreboard.clearPlayerTeam(playerName);
+        // 同步数据只包含在线玩家，无需同步客户端；原版记分板会自行广播成员变化
+        snapshot.updateAndGet(current -> current.withoutPlayer(playerId));
+
+        for (TeamChangeListener listener : teamChangeListeners) {
+            listener.onOfflineTeamCleared(playerId, playerName, teamId);
+        }
+        return true;
+    }
+
     private void applyTeamSettings(@NotNull ServerPlayerEntity player, @Nullable PlayerTeamData data) {
         if (data == null || data.teamId() == null) return;
 
@@ -211,31 +371,85 @@ public class TeamAPI implements ModInitializer {
         }
     }
 
+    private void requestSync(@NotNull MinecraftServer server) {
+        syncBatcher.requestSync(server);
+    }
+
     private void syncTeamDataToClient(@NotNull ServerPlayerEntity player) {
-        syncTeamData(player);
+        // 请求排队期间玩家可能已断开，避免为已断开的连接重新记录字典
+        if (player.isDisconnected()) return;
+        syncTeamData(player.getServer(), List.of(player));
     }
 
     private void syncTeamDataToAllClients(@NotNull MinecraftServer server) {
-        server.getPlayerManager().getPlayerList().forEach(this::syncTeamData);
+        syncTeamData(server, server.getPlayerManager().getPlayerList());
     }
 
-    private void syncTeamData(@NotNull ServerPlayerEntity player) {
+    /**
+     * 快照只编码一次，再发送给所有目标玩家
+     * <p>
+     * 支持压缩的客户端在快照超过阈值且压缩后确实更小时收到压缩版本；
+     * 压缩字典在每个连接上只发送一次，队伍配置变化后才重新发送。
+     */
+    private void syncTeamData(@Nullable MinecraftServer server, @NotNull List<ServerPlayerEntity> players) {
+        if (players.isEmpty()) return;
+
         try {
-            Map<String, String> roles = gatherTeamData(player.getServer());
+            Map<String, String> roles = gatherTeamData(server);
             PacketByteBuf buf = createSyncPacket(roles);
-            ServerPlayNetworking.send(player, SYNC_TEAMS, buf);
+            Packet<?> plainPacket = ServerPlayNetworking.createS2CPacket(SYNC_TEAMS, buf);
+            boolean compress = config.compressionThreshold >= 0 && buf.readableBytes() >= config.compressionThreshold;
+            Packet<?> compressedPacket = null;
+            Packet<?> dictionaryPacket = null;
+            int dictionaryId = 0;
+
+            for (ServerPlayerEntity player : players) {
+                if (compress && ServerPlayNetworking.canSend(player, SYNC_TEAMS_COMPRESSED)) {
+                    if (compressedPacket == null) {
+                        List<String> teamIds = List.copyOf(config.teams.keySet());
+                        byte[] dictionary = SnapshotCompression.buildDictionary(teamIds);
+                        PacketByteBuf compressed = compression.compress(buf, dictionary);
+                        if (compressed.readableBytes() >= buf.readableBytes()) {
+                            // 压缩无收益，本次全部发送未压缩版本
+                            compression.discard(buf.readableBytes(), compressed);
+                            compress = false;
+                            player.networkHandler.sendPacket(plainPacket);
+                            continue;
+                        }
+                        compressedPacket = ServerPlayNetworking.createS2CPacket(SYNC_TEAMS_COMPRESSED, compressed);
+                        dictionaryPacket = ServerPlayNetworking.createS2CPacket(SYNC_DICTIONARY, createDictionaryPacket(teamIds));
+                        dictionaryId = SnapshotCompression.dictionaryId(dictionary);
+                    }
+
+                    Integer sentId = sentDictionaries.put(player.getUuid(), dictionaryId);
+                    if (sentId == null || sentId != dictionaryId) {
+                        player.networkHandler.sendPacket(dictionaryPacket);
+                    }
+                    player.networkHandler.sendPacket(compressedPacket);
+                } else {
+                    player.networkHandler.sendPacket(plainPacket);
+                }
+            }
         } catch (Exception e) {
             LOGGER.severe("Failed to sync team data to client: " + e.getMessage());
         }
     }
 
+    private PacketByteBuf createDictionaryPacket(List<String> teamIds) {
+        PacketByteBuf buf = PacketByteBufs.create();
+        buf.writeVarInt(teamIds.size());
+        teamIds.forEach(buf::writeString);
+        return buf;
+    }
+
     private Map<String, String> gatherTeamData(MinecraftServer server) {
         Map<String, String> roles = new HashMap<>();
+        TeamSnapshot current = snapshot.get();
         Objects.requireNonNull(server)
                 .getPlayerManager()
                 .getPlayerList()
                 .forEach(p -> {
-                    PlayerTeamData data = playerDataMap.get(p.getUuid());
+                    PlayerTeamData data = current.getPlayerData(p.getUuid());
                     if (data != null && data.teamId() != null) {
                         roles.put(p.getName().getString(), data.teamId());
                     }
@@ -260,5 +474,21 @@ public class TeamAPI implements ModInitializer {
      */
     public interface TeamChangeListener {
         void onTeamChanged(@NotNull PlayerEntity player, @NotNull String newTeam);
+
+        /**
+         * 玩家被移出队伍时调用 (如临时队伍身份过期)
+         *
+         * @param oldTeam 玩家原来所在的队伍ID
+         */
+        default void onTeamCleared(@NotNull PlayerEntity player, @NotNull String oldTeam) {
+        }
+
+        /**
+         * 离线玩家被移出队伍时调用 (如临时队伍身份在玩家下线期间过期)
+         *
+         * @param oldTeam 玩家原来所在的队伍ID
+         */
+        default void onOfflineTeamCleared(@NotNull UUID playerId, @NotNull String playerName, @NotNull String oldTeam) {
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,342 @@
+package com.teamapi;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * 基于服务器tick驱动的分层时间轮调度器，用于延迟/定时执行队伍操作
+ * <p>
+ * 调度与取消均为O(1)；同一tick到期的所有操作会合并为一个批次执行，批次结束后只同步一次。
+ * 本类不是线程安全的，所有方法都应在服务器线程上调用。
+ */
+public final class TeamScheduler {
+    private static final Logger LOGGER = Logger.getLogger(TeamScheduler.class.getName());
+
+    // 每层64个槽位，共4层，可直接覆盖 2^24 tick (约9.7天)，更远的任务会在顶层循环等待
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (WHEEL_BITS * LEVELS);
+
+    private final TeamAPI api;
+    private final SyncBatcher syncBatcher;
+    private final Task[][] wheels = new Task[LEVELS][WHEEL_SIZE];
+    // 当前批次中正在执行的操作，clear() 需要阻止其中的重复任务被重新调度
+    private List<Task> running = List.of();
+    private long currentTick = 0;
+    private int pendingCount = 0;
+
+    TeamScheduler(TeamAPI api, @NotNull SyncBatcher syncBatcher) {
+        this.api = api;
+        this.syncBatcher = syncBatcher;
+        for (Task[] wheel : wheels) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                wheel[i] = Task.sentinel();
+            }
+        }
+    }
+
+    // ========== 公开API方法 ==========
+
+    /**
+     * 在指定tick数之后执行一次操作
+     *
+     * @param delayTicks 延迟tick数，小于1时按1处理 (下一tick执行)
+     */
+    @NotNull
+    public ScheduledOperation schedule(long delayTicks, @NotNull TeamOperation operation) {
+        return scheduleRepeating(delayTicks, 0, operation);
+    }
+
+    /**
+     * 在指定tick数之后开始，按固定周期重复执行操作，直到被取消
+     *
+     * @param delayTicks  首次执行的延迟tick数
+     * @param periodTicks 重复周期 (tick)，为0表示只执行一次
+     * @throws IllegalArgumentException 如果周期为负数
+     */
+    @NotNull
+    public ScheduledOperation scheduleRepeating(long delayTicks, long periodTicks, @NotNull TeamOperation operation) {
+        Objects.requireNonNull(operation, "操作不能为null");
+        if (periodTicks < 0) {
+            throw new IllegalArgumentException("重复周期不能为负数: " + periodTicks);
+        }
+
+        Task task = new Task(this, operation, periodTicks);
+        task.deadline = currentTick + Math.max(1, delayTicks);
+        insert(task);
+        pendingCount++;
+        return task;
+    }
+
+    /**
+     * 在指定tick数之后把玩家移动到目标队伍 (玩家届时不在线则忽略)
+     *
+     * @throws IllegalArgumentException 如果队伍ID不存在
+     */
+    @NotNull
+    public ScheduledOperation schedulePlayerTeam(@NotNull UUID playerId, @NotNull String teamId, long delayTicks) {
+        if (!TeamAPI.getConfig().teams.containsKey(teamId)) {
+            throw new IllegalArgumentException("未知队伍ID: " + teamId);
+        }
+        return schedule(delayTicks, server -> {
+            ServerPlayerEntity player = server.getPlayerManager().getPlayer(playerId);
+            if (player != null) {
+                api.setPlayerTeam(player, teamId);
+            }
+        });
+    }
+
+    /**
+     * 在指定tick数之后让玩家的临时队伍身份过期
+     * <p>
+     * 只有到期时玩家仍在该队伍中才会被移出，期间被重新分配的玩家不受影响。
+     * 与 {@link #schedulePlayerTeam} 不同，到期时玩家不在线也会按名称移出其记分板队伍，
+     * 见 {@link TeamAPI#expirePlayerTeam}。
+     */
+    @NotNull
+    public ScheduledOperation scheduleTeamExpiry(@NotNull UUID playerId, @NotNull String teamId, long delayTicks) {
+        return schedule(delayTicks, server -> api.expirePlayerTeam(server, playerId, teamId));
+    }
+
+    /**
+     * 取消尚未执行的操作
+     *
+     * @return 操作此前是否仍在等待执行
+     */
+    public boolean cancel(@NotNull ScheduledOperation operation) {
+        return operation.cancel();
+    }
+
+    /**
+     * 获取等待执行的操作数量
+     */
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * 获取调度器当前的tick计数
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * 取消所有等待中的操作，包括当前批次中尚未重新调度的重复操作
+     */
+    public void clear() {
+        for (Task task : running) {
+            task.cancelled = true;
+        }
+        for (Task[] wheel : wheels) {
+            for (Task head : wheel) {
+                while (head.next != head) {
+                    Task task = head.next;
+                    task.cancelled = true;
+                    task.unlink();
+                }
+            }
+        }
+        pendingCount = 0;
+    }
+
+    // ========== 内部方法 ==========
+
+    /**
+     * 推进一个tick，执行所有到期的操作
+     */
+    void tick(@NotNull MinecraftServer server) {
+        currentTick++;
+        if (pendingCount == 0) return;
+
+        // 先从高层向低层逐级下放任务
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+                cascade(level);
+            }
+        }
+
+        Task head = wheels[0][(int) (currentTick & WHEEL_MASK)];
+        if (head.next == head) return;
+
+        // 先整体摘下，避免操作内新增的调度影响本次遍历
+        List<Task> due = new ArrayList<>();
+        while (head.next != head) {
+            Task task = head.next;
+            task.unlink();
+            if (task.deadline > currentTick) {
+                insert(task);
+            } else {
+                due.add(task);
+            }
+        }
+        pendingCount -= due.size();
+
+        running = due;
+        try {
+            syncBatcher.runBatch(server, () -> {
+                for (Task task : due) {
+                    // 可能已被同一批次中先执行的操作取消
+                    if (task.cancelled) continue;
+                    try {
+                        task.operation.run(server);
+                    } catch (Exception e) {
+                        LOGGER.warning("Scheduled team operation failed: " + e.getMessage());
+                    }
+                }
+            });
+        } finally {
+            running = List.of();
+        }
+
+        for (Task task : due) {
+            // 执行期间可能被取消或已被重新调度
+            if (task.period > 0 && !task.cancelled && !task.isScheduled()) {
+                task.deadline = currentTick + task.period;
+                insert(task);
+                pendingCount++;
+            }
+        }
+    }
+
+    private void cascade(int level) {
+        int index = (int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        Task head = wheels[level][index];
+        while (head.next != head) {
+            Task task = head.next;
+            task.unlink();
+            insert(task);
+        }
+    }
+
+    private void insert(Task task) {
+        long delta = task.deadline - currentTick;
+        long slotTick = task.deadline;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+        if (delta >= MAX_SPAN) {
+            // 超出时间轮范围，先停在顶层，下放时会重新计算
+            slotTick = currentTick + MAX_SPAN - 1;
+        }
+        int index = (int) ((slotTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        task.linkBefore(wheels[level][index]);
+    }
+
+    private void onCancelled() {
+        pendingCount--;
+    }
+
+    // ========== 接口定义 ==========
+
+    /**
+     * 调度执行的队伍操作
+     * <p>
+     * 操作在服务器线程上以批次方式执行，期间对 {@link TeamAPI#setPlayerTeam} 的调用只会在批次结束后同步一次。
+     */
+    @FunctionalInterface
+    public interface TeamOperation {
+        void run(@NotNull MinecraftServer server);
+    }
+
+    /**
+     * 已调度操作的句柄
+     */
+    public interface ScheduledOperation {
+        /**
+         * 取消操作
+         *
+         * @return 操作此前是否仍在等待执行
+         */
+        boolean cancel();
+
+        /**
+         * 是否仍在等待执行
+         */
+        boolean isScheduled();
+
+        /**
+         * 是否已被取消
+         */
+        boolean isCancelled();
+
+        /**
+         * 下一次执行时的调度器tick
+         */
+        long getDeadline();
+    }
+
+    /**
+     * 时间轮槽位中的双向链表节点，槽位头部使用哨兵节点
+     */
+    private static final class Task implements ScheduledOperation {
+        @Nullable
+        private final TeamScheduler owner;
+        @Nullable
+        private final TeamOperation operation;
+        private final long period;
+        private long deadline;
+        private boolean cancelled;
+        private Task prev = this;
+        private Task next = this;
+
+        private Task(@Nullable TeamScheduler owner, @Nullable TeamOperation operation, long period) {
+            this.owner = owner;
+            this.operation = operation;
+            this.period = period;
+        }
+
+        static Task sentinel() {
+            return new Task(null, null, 0);
+        }
+
+        void linkBefore(@NotNull Task head) {
+            prev = head.prev;
+            next = head;
+            head.prev.next = this;
+            head.prev = this;
+        }
+
+        void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = this;
+            next = this;
+        }
+
+        @Override
+        public boolean cancel() {
+            cancelled = true;
+            if (!isScheduled()) return false;
+            unlink();
+            Objects.requireNonNull(owner).onCancelled();
+            return true;
+        }
+
+        @Override
+        public boolean isScheduled() {
+            return next != this;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+}
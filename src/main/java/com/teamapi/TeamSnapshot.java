@@ -0,0 +1,111 @@
+package com.teamapi;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * 某一时刻完整队伍状态的不可变快照
+ * <p>
+ * 可在任意线程无锁读取，内容不会再改变。每次提交变更都会发布一个版本号更大的新快照，
+ * 新旧快照之间共享未修改的部分，因此获取快照不需要复制。
+ */
+public final class TeamSnapshot {
+    static final TeamSnapshot EMPTY = new TeamSnapshot(PersistentHashMap.empty(), 0);
+
+    private final PersistentHashMap<UUID, PlayerTeamData> players;
+    private final long version;
+
+    private TeamSnapshot(@NotNull PersistentHashMap<UUID, PlayerTeamData> players, long version) {
+        this.players = players;
+        this.version = version;
+    }
+
+    /**
+     * 获取快照版本号，每次提交变更后单调递增，可用于快速判断状态是否变化
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 获取玩家的队伍数据
+     *
+     * @return 队伍数据，玩家不在任何队伍中时返回null
+     */
+    @Nullable
+    public PlayerTeamData getPlayerData(@NotNull UUID playerId) {
+        return players.get(playerId);
+    }
+
+    /**
+     * 获取玩家所在队伍ID
+     *
+     * @return 队伍ID，如果玩家没有队伍则返回null
+     */
+    @Nullable
+    public String getPlayerTeam(@NotNull UUID playerId) {
+        PlayerTeamData data = players.get(playerId);
+        return data != null ? data.teamId() : null;
+    }
+
+    /**
+     * 获取指定队伍的所有成员
+     */
+    @NotNull
+    public List<UUID> getPlayersInTeam(@NotNull String teamId) {
+        List<UUID> members = new ArrayList<>();
+        players.forEach((playerId, data) -> {
+            if (teamId.equals(data.teamId())) {
+                members.add(playerId);
+            }
+        });
+        return members;
+    }
+
+    /**
+     * 获取有队伍数据的玩家数量
+     */
+    public int size() {
+        return players.size();
+    }
+
+    /**
+     * 遍历所有玩家的队伍数据
+     */
+    public void forEach(@NotNull Consumer<PlayerTeamData> action) {
+        players.forEach((playerId, data) -> action.accept(data));
+    }
+
+    // ========== 内部方法 ==========
+
+    /**
+     * 返回写入玩家数据后的新快照，数据未变化时返回自身
+     */
+    @NotNull
+    TeamSnapshot withPlayerData(@NotNull PlayerTeamData data) {
+        PersistentHashMap<UUID, PlayerTeamData> updated = players.put(data.playerId(), data);
+        return updated == players ? this : new TeamSnapshot(updated, version + 1);
+    }
+
+    /**
+     * 返回移除玩家数据后的新快照，玩家不存在时返回自身
+     */
+    @NotNull
+    TeamSnapshot withoutPlayer(@NotNull UUID playerId) {
+        PersistentHashMap<UUID, PlayerTeamData> updated = players.remove(playerId);
+        return updated == players ? this : new TeamSnapshot(updated, version + 1);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "TeamSnapshot{" +
+                "version=" + version +
+                ", size=" + players.size() +
+                '}';
+    }
+}
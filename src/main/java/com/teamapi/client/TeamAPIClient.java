@@ -1,29 +1,39 @@
 package com.teamapi.client;
 
+import com.teamapi.SnapshotCompression;
 import com.teamapi.TeamAPI;
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.api.Environment;
+import net.fabricmc.fabric.api.client.command.v2.ClientCommandManager;
+import net.fabricmc.fabric.api.client.command.v2.ClientCommandRegistrationCallback;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.option.KeyBinding;
 import net.minecraft.client.util.InputUtil;
 import net.minecraft.network.PacketByteBuf;
+import net.minecraft.text.Text;
 import org.jetbrains.annotations.NotNull;
 import org.lwjgl.glfw.GLFW;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
 
 /**
  * 客户端队伍API实现
  */
 @Environment(EnvType.CLIENT)
 public final class TeamAPIClient implements ClientModInitializer {
+    private static final Logger LOGGER = Logger.getLogger(TeamAPIClient.class.getName());
+    private static final SnapshotCompression compression = new SnapshotCompression();
     private static final Map<String, String> teamCache = new ConcurrentHashMap<>();
+    // 服务端在本连接上发送的压缩字典
+    private static volatile byte[] dictionary = SnapshotCompression.buildDictionary(List.of());
     static KeyBinding openTeamUIKey;
     static boolean initialized = false;
 
@@ -34,6 +44,7 @@ public final class TeamAPIClient implements ClientModInitializer {
 
         registerKeyBindings();
         registerClientNetworkHandlers();
+        registerCommands();
     }
 
     private void registerKeyBindings() {
@@ -57,15 +68,49 @@ public final class TeamAPIClient implements ClientModInitializer {
     }
 
     private void registerClientNetworkHandlers() {
-        ClientPlayNetworking.registerGlobalReceiver(TeamAPI.SYNC_TEAMS, (client, handler, buf, responseSender) -> {
-            Map<String, String> newData = decodeTeamData(buf);
-            updateTeamCache(newData);
+        ClientPlayNetworking.registerGlobalReceiver(TeamAPI.SYNC_TEAMS, (client, handler, buf, responseSender) ->
+                handleTeamData(client, decodeTeamData(buf))
+        );
 
-            client.execute(() -> {
-                if (client.currentScreen instanceof TeamUIScreen) {
-                    ((TeamUIScreen) client.currentScreen).updateTeamData(newData);
-                }
-            });
+        // 注册该通道即向服务端表明支持压缩快照
+        ClientPlayNetworking.registerGlobalReceiver(TeamAPI.SYNC_TEAMS_COMPRESSED, (client, handler, buf, responseSender) -> {
+            try {
+                handleTeamData(client, decodeCompressedTeamData(buf));
+            } catch (Exception e) {
+                LOGGER.severe("Failed to decode compressed team data: " + e.getMessage());
+            }
+        });
+
+        ClientPlayNetworking.registerGlobalReceiver(TeamAPI.SYNC_DICTIONARY, (client, handler, buf, responseSender) ->
+                dictionary = decodeDictionary(buf)
+        );
+
+        // 字典只在单个连接内有效
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) ->
+                dictionary = SnapshotCompression.buildDictionary(List.of())
+        );
+    }
+
+    private void registerCommands() {
+        // /teamapi-client compression 查看客户端快照解压统计
+        ClientCommandRegistrationCallback.EVENT.register((dispatcher, registryAccess) ->
+                dispatcher.register(ClientCommandManager.literal("teamapi-client")
+                        .then(ClientCommandManager.literal("compression")
+                                .executes(context -> {
+                                    context.getSource().sendFeedback(
+                                            Text.literal("快照解压: " + compression.getStats().summary()));
+                                    return 1;
+                                })))
+        );
+    }
+
+    private static void handleTeamData(@NotNull MinecraftClient client, @NotNull Map<String, String> newData) {
+        updateTeamCache(newData);
+
+        client.execute(() -> {
+            if (client.currentScreen instanceof TeamUIScreen) {
+                ((TeamUIScreen) client.currentScreen).updateTeamData(newData);
+            }
         });
     }
 
@@ -79,6 +124,20 @@ public final class TeamAPIClient implements ClientModInitializer {
         return newData;
     }
 
+    @NotNull
+    static Map<String, String> decodeCompressedTeamData(PacketByteBuf buf) {
+        return decodeTeamData(compression.decompress(buf, dictionary));
+    }
+
+    static byte[] decodeDictionary(PacketByteBuf buf) {
+        List<String> teamIds = new ArrayList<>();
+        int count = buf.readVarInt();
+        for (int i = 0; i < count; i++) {
+            teamIds.add(buf.readString());
+        }
+        return SnapshotCompression.buildDictionary(teamIds);
+    }
+
     static void updateTeamCache(@NotNull Map<String, String> newData) {
         teamCache.clear();
         teamCache.putAll(newData);
@@ -101,6 +160,14 @@ public final class TeamAPIClient implements ClientModInitializer {
         return new HashMap<>(teamCache);
     }
 
+    /**
+     * 获取客户端快照解压统计
+     */
+    @NotNull
+    public static SnapshotCompression.Stats getCompressionStats() {
+        return compression.getStats();
+    }
+
     /**
      * 获取队伍UI快捷键绑定
      */
@@ -64,6 +64,13 @@ public class TeamConfig implements ConfigData {
     @ConfigEntry.Gui.CollapsibleObject
     public final Map<String, TeamInfo> teams = new LinkedHashMap<>();
 
+    /**
+     * 队伍快照达到该字节数时，对支持压缩的客户端发送压缩版本；小于0表示禁用压缩
+     */
+    @ConfigEntry.Gui.Tooltip
+    @ConfigEntry.Category("advanced")
+    public int compressionThreshold = 1024;
+
     public TeamConfig() {
         // 初始化默认队伍配置
         initializeDefaultTeams();
@@ -0,0 +1,129 @@
+package com.teamapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentHashMapTest {
+    /**
+     * 哈希值可控的键，用于构造部分或完全冲突
+     */
+    private record Key(int id, int hash) {
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && other.id == id;
+        }
+    }
+
+    private static void assertSameContent(Map<Object, Integer> expected, PersistentHashMap<Object, Integer> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (Map.Entry<Object, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), actual.get(entry.getKey()));
+        }
+        Map<Object, Integer> visited = new HashMap<>();
+        actual.forEach((key, value) -> assertNull(visited.put(key, value), "重复遍历键 " + key));
+        assertEquals(expected, visited);
+    }
+
+    private static void randomOperations(long seed, int operations, java.util.function.IntFunction<Object> keys) {
+        Random random = new Random(seed);
+        Map<Object, Integer> expected = new HashMap<>();
+        PersistentHashMap<Object, Integer> map = PersistentHashMap.empty();
+        List<Map<Object, Integer>> expectedHistory = new ArrayList<>();
+        List<PersistentHashMap<Object, Integer>> history = new ArrayList<>();
+
+        for (int i = 0; i < operations; i++) {
+            Object key = keys.apply(random.nextInt(2000));
+            if (random.nextInt(3) == 0) {
+                PersistentHashMap<Object, Integer> updated = map.remove(key);
+                boolean present = expected.remove(key) != null;
+                assertEquals(!present, updated == map, "只有实际删除时才返回新对象");
+                map = updated;
+            } else {
+                int value = random.nextInt(4);
+                PersistentHashMap<Object, Integer> updated = map.put(key, value);
+                boolean unchanged = Integer.valueOf(value).equals(expected.put(key, value));
+                assertEquals(unchanged, updated == map, "只有值变化时才返回新对象");
+                map = updated;
+            }
+            assertEquals(expected.size(), map.size());
+
+            if (i % 1000 == 0) {
+                expectedHistory.add(new HashMap<>(expected));
+                history.add(map);
+            }
+        }
+
+        assertSameContent(expected, map);
+        // 旧版本不受后续修改影响
+        for (int i = 0; i < history.size(); i++) {
+            assertSameContent(expectedHistory.get(i), history.get(i));
+        }
+    }
+
+    @Test
+    void matchesHashMapWithUuidKeys() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            ids.add(UUID.nameUUIDFromBytes(("player" + i).getBytes()));
+        }
+        randomOperations(1, 50_000, ids::get);
+    }
+
+    @Test
+    void matchesHashMapWithPartiallyCollidingHashes() {
+        // 只有高位不同，需要多层分支节点
+        randomOperations(2, 50_000, id -> new Key(id, (id % 64) << 26));
+    }
+
+    @Test
+    void matchesHashMapWithFullyCollidingHashes() {
+        // 少量哈希值被大量键共享，进入冲突节点
+        randomOperations(3, 50_000, id -> new Key(id, id % 3));
+    }
+
+    @Test
+    void collisionNodeHandlesPutReplaceAndRemove() {
+        Key a = new Key(1, 42);
+        Key b = new Key(2, 42);
+        Key c = new Key(3, 42);
+
+        PersistentHashMap<Key, String> map = PersistentHashMap.<Key, String>empty().put(a, "a").put(b, "b").put(c, "c");
+        assertEquals(3, map.size());
+        assertEquals("b", map.get(b));
+
+        assertSame(map, map.put(b, "b"));
+        PersistentHashMap<Key, String> replaced = map.put(b, "B");
+        assertEquals(3, replaced.size());
+        assertEquals("B", replaced.get(b));
+        assertEquals("b", map.get(b));
+
+        assertSame(map, map.remove(new Key(4, 42)));
+        PersistentHashMap<Key, String> removed = map.remove(a).remove(c);
+        assertEquals(1, removed.size());
+        assertNull(removed.get(a));
+        assertEquals("b", removed.get(b));
+
+        assertEquals(0, removed.remove(b).size());
+        assertNull(removed.remove(b).get(b));
+    }
+
+    @Test
+    void emptyMapOperations() {
+        PersistentHashMap<String, String> empty = PersistentHashMap.empty();
+        assertEquals(0, empty.size());
+        assertNull(empty.get("missing"));
+        assertSame(empty, empty.remove("missing"));
+
+        PersistentHashMap<String, String> single = empty.put("key", "value");
+        assertEquals(1, single.size());
+        assertSame(PersistentHashMap.empty(), single.remove("key"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.teamapi;
+
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.minecraft.network.PacketByteBuf;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotCompressionTest {
+    private final SnapshotCompression compression = new SnapshotCompression();
+
+    private static PacketByteBuf snapshot(int players) {
+        PacketByteBuf buf = PacketByteBufs.create();
+        buf.writeInt(players);
+        for (int i = 0; i < players; i++) {
+            buf.writeString("Player" + i);
+            buf.writeString(i % 2 == 0 ? "red" : "blue");
+        }
+        return buf;
+    }
+
+    private static byte[] bytes(PacketByteBuf buf) {
+        byte[] bytes = new byte[buf.readableBytes()];
+        buf.getBytes(buf.readerIndex(), bytes);
+        return bytes;
+    }
+
+    @Test
+    void roundTripRestoresSnapshot() {
+        byte[] dictionary = SnapshotCompression.buildDictionary(List.of("red", "blue"));
+        PacketByteBuf plain = snapshot(200);
+        byte[] expected = bytes(plain);
+
+        PacketByteBuf compressed = compression.compress(plain, dictionary);
+        assertArrayEquals(expected, bytes(plain), "压缩不应修改原数据");
+        assertTrue(compressed.readableBytes() < expected.length);
+
+        assertArrayEquals(expected, bytes(compression.decompress(compressed, dictionary)));
+    }
+
+    @Test
+    void mismatchedDictionaryIsRejected() {
+        PacketByteBuf compressed = compression.compress(snapshot(20),
+                SnapshotCompression.buildDictionary(List.of("red", "blue")));
+        byte[] other = SnapshotCompression.buildDictionary(List.of("green"));
+        assertThrows(IllegalStateException.class, () -> compression.decompress(compressed, other));
+    }
+
+    @Test
+    void oversizedLengthIsRejected() {
+        PacketByteBuf buf = PacketByteBufs.create();
+        buf.writeVarInt(SnapshotCompression.MAX_UNCOMPRESSED_SIZE + 1);
+        assertThrows(IllegalStateException.class, () -> compression.decompress(buf, new byte[0]));
+    }
+
+    @Test
+    void statsTrackRatio() {
+        byte[] dictionary = SnapshotCompression.buildDictionary(List.of("red", "blue"));
+        PacketByteBuf plain = snapshot(100);
+        int raw = plain.readableBytes();
+        int compressed = compression.compress(plain, dictionary).readableBytes();
+
+        SnapshotCompression.Stats stats = compression.getStats();
+        assertEquals(1, stats.packets());
+        assertEquals(raw, stats.rawBytes());
+        assertEquals(compressed, stats.compressedBytes());
+        assertEquals((double) compressed / raw, stats.ratio(), 1e-9);
+
+        compression.resetStats();
+        assertEquals(0, compression.getStats().packets());
+    }
+
+    @Test
+    void discardedAttemptsAreCountedSeparately() {
+        byte[] dictionary = SnapshotCompression.buildDictionary(List.of("red", "blue"));
+        PacketByteBuf sent = snapshot(100);
+        int raw = sent.readableBytes();
+        int compressed = compression.compress(sent, dictionary).readableBytes();
+
+        PacketByteBuf tiny = snapshot(0);
+        PacketByteBuf attempt = compression.compress(tiny, dictionary);
+        compression.discard(tiny.readableBytes(), attempt);
+
+        SnapshotCompression.Stats stats = compression.getStats();
+        assertEquals(1, stats.packets());
+        assertEquals(raw, stats.rawBytes());
+        assertEquals(compressed, stats.compressedBytes());
+        assertEquals(1, stats.discarded());
+        assertEquals(0, attempt.refCnt());
+
+        compression.resetStats();
+        assertEquals(0, compression.getStats().discarded());
+    }
+}
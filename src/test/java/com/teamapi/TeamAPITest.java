@@ -0,0 +1,70 @@
+package com.teamapi;
+
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.scoreboard.Scoreboard;
+import net.minecraft.scoreboard.Team;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TeamAPITest {
+    private static final UUID PLAYER_ID = UUID.randomUUID();
+    private static final String PLAYER_NAME = "Offline";
+
+    private final TeamAPI api = new TeamAPI();
+    private final Scoreboard scoreboard = new Scoreboard();
+    private final List<String> cleared = new ArrayList<>();
+
+    TeamAPITest() {
+        scoreboard.addTeam(TeamAPI.RED_TEAM);
+        scoreboard.addTeam(TeamAPI.BLUE_TEAM);
+        api.registerTeamChangeListener(new TeamAPI.TeamChangeListener() {
+            @Override
+            public void onTeamChanged(@NotNull PlayerEntity player, @NotNull String newTeam) {
+            }
+
+            @Override
+            public void onOfflineTeamCleared(@NotNull UUID playerId, @NotNull String playerName, @NotNull String oldTeam) {
+                cleared.add(playerName + ":" + oldTeam);
+            }
+        });
+    }
+
+    private void join(String teamId) {
+        Team team = scoreboard.getTeam(teamId);
+        scoreboard.addPlayerToTeam(PLAYER_NAME, team);
+    }
+
+    @Test
+    void offlineExpiryRemovesScoreboardMembership() {
+        join(TeamAPI.RED_TEAM);
+
+        assertTrue(api.clearOfflinePlayerTeam(scoreboard, PLAYER_ID, PLAYER_NAME, TeamAPI.RED_TEAM));
+        assertNull(scoreboard.getPlayerTeam(PLAYER_NAME), "离线玩家应被移出记分板队伍");
+        assertNull(api.getSnapshot().getPlayerTeam(PLAYER_ID));
+        assertEquals(List.of(PLAYER_NAME + ":" + TeamAPI.RED_TEAM), cleared);
+    }
+
+    @Test
+    void offlineExpiryIgnoresReassignedPlayer() {
+        join(TeamAPI.BLUE_TEAM);
+
+        assertFalse(api.clearOfflinePlayerTeam(scoreboard, PLAYER_ID, PLAYER_NAME, TeamAPI.RED_TEAM));
+        assertEquals(TeamAPI.BLUE_TEAM, scoreboard.getPlayerTeam(PLAYER_NAME).getName());
+        assertTrue(cleared.isEmpty());
+    }
+
+    @Test
+    void offlineExpiryWithoutTeamDoesNothing() {
+        long version = api.getSnapshot().getVersion();
+
+        assertFalse(api.clearOfflinePlayerTeam(scoreboard, PLAYER_ID, PLAYER_NAME, TeamAPI.RED_TEAM));
+        assertEquals(version, api.getSnapshot().getVersion());
+        assertTrue(cleared.isEmpty());
+    }
+}
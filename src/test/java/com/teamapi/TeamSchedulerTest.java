@@ -0,0 +1,142 @@
+package com.teamapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TeamSchedulerTest {
+    private int syncs = 0;
+    // 调度器只把服务器对象透传给操作，测试中不需要真实服务器
+    private final SyncBatcher batcher = new SyncBatcher(server -> syncs++);
+    private final TeamScheduler scheduler = new TeamScheduler(null, batcher);
+
+    private void advance(long ticks) {
+        for (long i = 0; i < ticks; i++) {
+            scheduler.tick(null);
+        }
+    }
+
+    @Test
+    void firesExactlyOnDueTickAcrossLevelBoundaries() {
+        long[] delays = {1, 63, 64, 65, 4095, 4096, 4097, 262143, 262144,
+                (1L << 24) - 1, 1L << 24, (1L << 24) + 1, 3 * (1L << 24) + 5};
+
+        // 从对齐与未对齐的起点分别调度
+        for (long offset : new long[]{0, 37}) {
+            advance(offset);
+            long start = scheduler.getCurrentTick();
+            List<long[]> fired = new ArrayList<>();
+            for (long delay : delays) {
+                scheduler.schedule(delay, server -> fired.add(new long[]{delay, scheduler.getCurrentTick() - start}));
+            }
+
+            advance(delays[delays.length - 1] + 10);
+
+            assertEquals(delays.length, fired.size(), "每个操作只执行一次");
+            for (long[] entry : fired) {
+                assertEquals(entry[0], entry[1], "延迟 " + entry[0] + " 的执行时间不正确");
+            }
+            assertEquals(0, scheduler.getPendingCount());
+        }
+    }
+
+    @Test
+    void nonPositiveDelayRunsOnNextTick() {
+        List<Long> fired = new ArrayList<>();
+        scheduler.schedule(0, server -> fired.add(scheduler.getCurrentTick()));
+        scheduler.schedule(-5, server -> fired.add(scheduler.getCurrentTick()));
+        advance(1);
+        assertEquals(List.of(1L, 1L), fired);
+    }
+
+    @Test
+    void repeatingOperationRunsEveryPeriod() {
+        List<Long> fired = new ArrayList<>();
+        scheduler.scheduleRepeating(10, 100, server -> fired.add(scheduler.getCurrentTick()));
+        advance(350);
+        assertEquals(List.of(10L, 110L, 210L, 310L), fired);
+        assertEquals(1, scheduler.getPendingCount());
+    }
+
+    @Test
+    void cancelBeforeDueSkipsOperation() {
+        int[] runs = {0};
+        TeamScheduler.ScheduledOperation operation = scheduler.schedule(100, server -> runs[0]++);
+        assertTrue(operation.cancel());
+        assertFalse(operation.cancel());
+        advance(200);
+        assertEquals(0, runs[0]);
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    void cancelInsideOperationSkipsLaterOperationInSameBatch() {
+        int[] runs = {0};
+        TeamScheduler.ScheduledOperation[] victim = new TeamScheduler.ScheduledOperation[1];
+        scheduler.schedule(5, server -> victim[0].cancel());
+        victim[0] = scheduler.schedule(5, server -> runs[0]++);
+        advance(10);
+        assertEquals(0, runs[0]);
+        assertTrue(victim[0].isCancelled());
+    }
+
+    @Test
+    void repeatingOperationCanCancelItself() {
+        int[] runs = {0};
+        TeamScheduler.ScheduledOperation[] self = new TeamScheduler.ScheduledOperation[1];
+        self[0] = scheduler.scheduleRepeating(1, 1, server -> {
+            if (++runs[0] == 3) {
+                self[0].cancel();
+            }
+        });
+        advance(10);
+        assertEquals(3, runs[0]);
+        assertFalse(self[0].isScheduled());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    void clearInsideBatchStopsRepeatingOperations() {
+        int[] runs = {0};
+        TeamScheduler.ScheduledOperation repeating = scheduler.scheduleRepeating(5, 5, server -> runs[0]++);
+        scheduler.schedule(5, server -> scheduler.clear());
+        scheduler.schedule(50, server -> runs[0]++);
+        advance(100);
+        assertEquals(1, runs[0]);
+        assertTrue(repeating.isCancelled());
+        assertFalse(repeating.isScheduled());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    void operationsDueInSameTickShareOneSync() {
+        for (int i = 0; i < 5; i++) {
+            scheduler.schedule(20, server -> batcher.requestSync(server));
+        }
+        advance(20);
+        assertEquals(1, syncs);
+
+        scheduler.schedule(1, server -> batcher.requestSync(server));
+        scheduler.schedule(2, server -> batcher.requestSync(server));
+        advance(2);
+        assertEquals(3, syncs);
+    }
+
+    @Test
+    void failingOperationDoesNotBreakBatch() {
+        int[] runs = {0};
+        scheduler.schedule(3, server -> {
+            throw new IllegalStateException("boom");
+        });
+        scheduler.schedule(3, server -> {
+            runs[0]++;
+            batcher.requestSync(server);
+        });
+        advance(3);
+        assertEquals(1, runs[0]);
+        assertEquals(1, syncs);
+    }
+}